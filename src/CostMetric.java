@@ -0,0 +1,44 @@
+import java.util.List;
+import java.util.Locale;
+
+public enum CostMetric {
+    LITERALS,
+    GATES,
+    GATE_INPUTS;
+
+    // Two-level cost; single-literal terms feed the output gate directly and inverters are free
+    public long cost(List<Implicant> cover) {
+        long literals = 0;
+        long gates = 0;
+        long gateInputs = 0;
+        for (Implicant imp : cover) {
+            int n = imp.countLiterals();
+            literals += n;
+            if (n > 1) {
+                gates++;
+                gateInputs += n;
+            }
+        }
+        if (cover.size() > 1) {
+            gates++;
+            gateInputs += cover.size();
+        }
+
+        switch (this) {
+            case LITERALS:
+                return literals;
+            case GATES:
+                return gates;
+            default:
+                return gateInputs;
+        }
+    }
+
+    public static CostMetric parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown cost metric: " + name);
+        }
+    }
+}
@@ -34,7 +34,6 @@ public class Implicant {
         this.minterms.addAll(a.minterms);
         this.minterms.addAll(b.minterms);
 
-        this.binaryRep = a.binaryRep;
         this.mask = new boolean[a.mask.length];
         System.arraycopy(a.mask, 0, this.mask, 0, a.mask.length);
 
@@ -54,6 +53,13 @@ public class Implicant {
             this.mask[diffPos] = false;
         }
 
+        // Masked positions are stored as '0' so equal patterns compare equal however they were formed
+        char[] bits = a.binaryRep.toCharArray();
+        for (int i = 0; i < bits.length; i++) {
+            if (!mask[i]) bits[i] = '0';
+        }
+        this.binaryRep = new String(bits);
+
         validateState();
     }
 
@@ -136,6 +142,32 @@ public class Implicant {
         return clause.toString();
     }
 
+    public String toSOPExpression(List<Character> variables) {
+        Objects.requireNonNull(variables, "Variables list cannot be null");
+        if (variables.size() < binaryRep.length()) {
+            throw new IllegalArgumentException("Not enough variables provided");
+        }
+
+        StringBuilder product = new StringBuilder();
+        for (int i = 0; i < binaryRep.length(); i++) {
+            if (mask[i]) {
+                product.append(variables.get(i));
+                if (binaryRep.charAt(i) == '0') {
+                    product.append("'");
+                }
+            }
+        }
+        return product.length() == 0 ? "1" : product.toString();
+    }
+
+    public int countLiterals() {
+        int count = 0;
+        for (boolean significant : mask) {
+            if (significant) count++;
+        }
+        return count;
+    }
+
     public String getPattern() {
         StringBuilder pattern = new StringBuilder();
         for (int i = 0; i < binaryRep.length(); i++) {
@@ -1,30 +1,43 @@
 import java.util.*;
+import java.util.function.Predicate;
 
 public class PrimeImplicantTable {
     private List<Implicant> implicants;
-    private List<Integer> minterms;
-    private Map<Implicant, Set<Integer>> coverage;
+    private BitSet minterms;
+    private Map<Implicant, BitSet> coverage;
 
     public PrimeImplicantTable(List<Implicant> implicants, List<Integer> minterms) {
+        this(implicants, TermParser.toBitSet(minterms));
+    }
+
+    public PrimeImplicantTable(List<Implicant> implicants, BitSet minterms) {
         this.implicants = new ArrayList<>(implicants);
-        this.minterms = new ArrayList<>(minterms);
+        this.minterms = (BitSet) minterms.clone();
         this.coverage = new HashMap<>();
 
         for (Implicant imp : implicants) {
-            Set<Integer> covered = new HashSet<>(imp.getMinterms());
-            covered.retainAll(minterms);
+            BitSet covered = new BitSet();
+            for (int m : imp.getMinterms()) {
+                if (minterms.get(m)) covered.set(m);
+            }
             coverage.put(imp, covered);
         }
     }
 
     public List<Implicant> findEssentialImplicants() {
+        return findEssentialImplicants(cover -> false);
+    }
+
+    // Returns null as soon as the partial cover satisfies abandon
+    public List<Implicant> findEssentialImplicants(Predicate<List<Implicant>> abandon) {
         List<Implicant> essentialImplicants = new ArrayList<>();
-        Set<Integer> uncoveredMinterms = new HashSet<>(minterms);
+        BitSet uncoveredMinterms = (BitSet) minterms.clone();
 
         // Create coverage map
         Map<Integer, List<Implicant>> mintermCoverage = new HashMap<>();
         for (Implicant imp : implicants) {
-            for (int m : coverage.get(imp)) {
+            BitSet covered = coverage.get(imp);
+            for (int m = covered.nextSetBit(0); m >= 0; m = covered.nextSetBit(m + 1)) {
                 mintermCoverage.computeIfAbsent(m, k -> new ArrayList<>()).add(imp);
             }
         }
@@ -35,7 +48,8 @@ public class PrimeImplicantTable {
                 Implicant essential = entry.getValue().get(0);
                 if (!essentialImplicants.contains(essential)) {
                     essentialImplicants.add(essential);
-                    uncoveredMinterms.removeAll(coverage.get(essential));
+                    uncoveredMinterms.andNot(coverage.get(essential));
+                    if (abandon.test(essentialImplicants)) return null;
                 }
             }
         }
@@ -47,10 +61,11 @@ public class PrimeImplicantTable {
 
         for (Implicant imp : remaining) {
             if (uncoveredMinterms.isEmpty()) break;
-            if (Collections.disjoint(uncoveredMinterms, coverage.get(imp))) continue;
+            if (!uncoveredMinterms.intersects(coverage.get(imp))) continue;
 
             essentialImplicants.add(imp);
-            uncoveredMinterms.removeAll(coverage.get(imp));
+            uncoveredMinterms.andNot(coverage.get(imp));
+            if (abandon.test(essentialImplicants)) return null;
         }
 
         return essentialImplicants;
@@ -66,25 +81,26 @@ public class PrimeImplicantTable {
 
         // Header row
         sb.append("| ").append(padCenter("Prime Implicant", piWidth-2)).append(" |");
-        for (int m : minterms) {
+        for (int m = minterms.nextSetBit(0); m >= 0; m = minterms.nextSetBit(m + 1)) {
             sb.append(padCenter(Integer.toString(m), mintermWidth)).append("|");
         }
         sb.append("\n");
 
         // Divider line
         sb.append("|").append(String.format("%" + (piWidth) + "s", "").replace(' ', '-')).append("|");
-        for (int i = 0; i < minterms.size(); i++) {
+        for (int i = 0; i < minterms.cardinality(); i++) {
             sb.append(String.format("%" + mintermWidth + "s", "").replace(' ', '-')).append("|");
         }
         sb.append("\n");
 
         // Table rows
         for (Implicant imp : implicants) {
+            QMCore.checkInterrupted();
             String pattern = getPattern(imp);
             sb.append("| ").append(padCenter("PI " + pattern, piWidth-2)).append(" |");
 
-            for (int m : minterms) {
-                String cell = coverage.get(imp).contains(m) ? "X" : "";
+            for (int m = minterms.nextSetBit(0); m >= 0; m = minterms.nextSetBit(m + 1)) {
+                String cell = coverage.get(imp).get(m) ? "X" : "";
                 sb.append(padCenter(cell, mintermWidth)).append("|");
             }
             sb.append("\n");
@@ -1,70 +1,215 @@
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class QMCore {
-    private List<Integer> minterms;
+    private static final int MAX_LISTED_TERMS = 64;
+
+    private BitSet inputTerms;
+    private BitSet minterms;
     private List<Character> variables;
     private List<String> steps;
+    private boolean recordSteps = true;
+    private int implicantLimit = Integer.MAX_VALUE;
 
     public QMCore(List<Integer> maxterms, List<Character> variables) {
+        this(TermParser.toBitSet(maxterms), variables);
+    }
+
+    public QMCore(BitSet maxterms, List<Character> variables) {
+        Objects.requireNonNull(maxterms, "Terms cannot be null");
+        checkInterrupted();
         this.variables = variables;
         this.steps = new ArrayList<>();
 
-        int numVars = variables.size();
-        Set<Integer> fullSet = new HashSet<>();
-        for (int i = 0; i < (1 << numVars); i++) {
-            fullSet.add(i);
+        // Terms outside the variable range are ignored, as with the list constructor
+        int size = 1 << variables.size();
+        this.inputTerms = maxterms.get(0, size);
+        this.minterms = (BitSet) inputTerms.clone();
+        this.minterms.flip(0, size);
+    }
+
+    // Callers that only need the expression (e.g. QMServer) skip building the step log
+    public void setRecordSteps(boolean recordSteps) {
+        this.recordSteps = recordSteps;
+    }
+
+    // A form holding more terms or implicants than this fails with IllegalArgumentException
+    public void setImplicantLimit(int implicantLimit) {
+        if (implicantLimit <= 0) {
+            throw new IllegalArgumentException("Implicant limit must be positive");
         }
-        fullSet.removeAll(maxterms);
-        this.minterms = new ArrayList<>(fullSet);
+        this.implicantLimit = implicantLimit;
     }
 
     public String minimize() {
-        steps.clear();
-        steps.add("=== Quine-McCluskey Boolean Function Minimization (POS Form) ===");
-        steps.add("Input Maxterms: " + getMaxterms());
-        steps.add("Variables: " + variables);
+        return minimize(Form.POS);
+    }
 
-        List<Minterm> mintermObjs = initializeMinterms();
-        steps.add("\n=== Step 1: Grouping Minterms by Number of 1s ===");
-        steps.add(groupMintermsToString(mintermObjs));
+    public String minimize(Form form) {
+        Objects.requireNonNull(form, "Form cannot be null");
+        FormResult result = runForm(form, null);
+        steps = recordSteps ? renderSteps(result) : new ArrayList<>();
+        return result.expression;
+    }
 
-        List<Implicant> primeImplicants = findPrimeImplicants(mintermObjs);
-        steps.add("\n=== Step 2: Prime Implicants ===");
-        steps.add(primeImplicants.stream().map(Implicant::toString).collect(Collectors.joining("\n")));
+    // Races the SOP and POS forms over the same input and keeps the cheaper one (POS on ties).
+    // Whichever form finishes first publishes its cost; the other stops at its next phase boundary
+    // once the prime implicants it has already proven essential cost more, or during its cover
+    // step once the partial cover does. Only the winner's steps are rendered. SOP runs on the
+    // given executor; if it has not been picked up by the time POS finishes (or the executor
+    // rejects it), it runs on this thread, so sharing a bounded pool with the caller cannot deadlock.
+    public String minimizeCheapest(CostMetric metric, Executor executor) {
+        Objects.requireNonNull(metric, "Cost metric cannot be null");
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        CostBound bound = new CostBound(metric);
 
-        PrimeImplicantTable table = new PrimeImplicantTable(primeImplicants, minterms);
-        steps.add("\n=== Step 3: Prime Implicant Table ===");
-        steps.add(table.toString());
+        FutureTask<FormResult> sopTask = new FutureTask<>(() -> bound.publish(runFormWithinLimit(Form.SOP, bound)));
+        try {
+            executor.execute(sopTask);
+        } catch (RejectedExecutionException e) {
+            // Falls back to running SOP after POS on this thread
+        }
 
-        List<Implicant> essentialImplicants = table.findEssentialImplicants();
-        steps.add("\n=== Step 4: Essential Prime Implicants ===");
-        steps.add(essentialImplicants.stream().map(Implicant::toString).collect(Collectors.joining("\n")));
+        FormResult pos;
+        FormResult sop;
+        try {
+            pos = bound.publish(runFormWithinLimit(Form.POS, bound));
+            sopTask.run(); // No-op if a pool thread already started it
+            sop = sopTask.get();
+        } catch (InterruptedException e) {
+            sopTask.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Minimization interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (RuntimeException e) {
+            sopTask.cancel(true);
+            throw e;
+        }
 
-        String minimizedExpr = getMinimizedExpression(essentialImplicants);
-        steps.add("\n=== Final Minimized Expression (POS) ===");
-        steps.add(minimizedExpr);
+        FormResult winner;
+        if (sop.cover == null && pos.cover == null) {
+            // Neither form was abandoned on cost, so both hit the implicant limit
+            throw pos.limitError;
+        } else if (sop.cover == null) {
+            winner = pos;
+        } else if (pos.cover == null) {
+            winner = sop;
+        } else {
+            winner = metric.cost(sop.cover) < metric.cost(pos.cover) ? sop : pos;
+        }
 
-        return minimizedExpr;
+        if (!recordSteps) {
+            steps = new ArrayList<>();
+            return winner.expression;
+        }
+        steps = renderSteps(winner);
+        steps.add("\n=== Form Selection (" + metric + ") ===");
+        steps.add(describeCost(sop, metric));
+        steps.add(describeCost(pos, metric));
+        steps.add("Selected: " + winner.form);
+        return winner.expression;
     }
 
     public List<String> getSteps() {
         return steps;
     }
 
-    private List<Integer> getMaxterms() {
-        int max = 1 << variables.size();
-        List<Integer> all = new ArrayList<>();
-        for (int i = 0; i < max; i++) {
-            all.add(i);
+    // Computes one form without building any step text; returns an abandoned result once bound
+    // shows this form cannot be the cheaper one
+    // In a race, a form that is too large to compute simply cannot win
+    private FormResult runFormWithinLimit(Form form, CostBound bound) {
+        try {
+            return runForm(form, bound);
+        } catch (ImplicantLimitException e) {
+            return FormResult.overLimit(form, e);
+        }
+    }
+
+    private FormResult runForm(Form form, CostBound bound) {
+        BitSet coverTerms = form == Form.POS ? minterms : inputTerms;
+        checkImplicantLimit(coverTerms.cardinality(), "terms");
+
+        List<Implicant> primeImplicants = findPrimeImplicants(initializeMinterms(coverTerms), bound);
+        if (primeImplicants == null) {
+            return FormResult.abandoned(form);
+        }
+
+        PrimeImplicantTable table = new PrimeImplicantTable(primeImplicants, coverTerms);
+        checkInterrupted();
+        List<Implicant> essentialImplicants = table.findEssentialImplicants(
+                cover -> bound != null && bound.isExceededBy(cover));
+        if (essentialImplicants == null) {
+            return FormResult.abandoned(form);
+        }
+
+        String minimizedExpr = form == Form.POS
+                ? getMinimizedExpression(essentialImplicants)
+                : getMinimizedSOPExpression(essentialImplicants);
+        return new FormResult(form, coverTerms, primeImplicants, table, essentialImplicants, minimizedExpr);
+    }
+
+    private List<String> renderSteps(FormResult result) {
+        Form form = result.form;
+        List<String> formSteps = new ArrayList<>();
+        formSteps.add("=== Quine-McCluskey Boolean Function Minimization (" + form + " Form) ===");
+        formSteps.add((form == Form.POS ? "Input Maxterms: " : "Input Minterms: ") + describeTerms(inputTerms));
+        formSteps.add("Variables: " + variables);
+
+        formSteps.add("\n=== Step 1: Grouping Minterms by Number of 1s ===");
+        formSteps.add(groupMintermsToString(initializeMinterms(result.coverTerms)));
+
+        checkInterrupted();
+        formSteps.add("\n=== Step 2: Prime Implicants ===");
+        formSteps.add(result.primeImplicants.stream().map(Implicant::toString).collect(Collectors.joining("\n")));
+
+        checkInterrupted();
+        formSteps.add("\n=== Step 3: Prime Implicant Table ===");
+        formSteps.add(result.table.toString());
+
+        checkInterrupted();
+        formSteps.add("\n=== Step 4: Essential Prime Implicants ===");
+        formSteps.add(result.cover.stream().map(Implicant::toString).collect(Collectors.joining("\n")));
+
+        formSteps.add("\n=== Final Minimized Expression (" + form + ") ===");
+        formSteps.add(result.expression);
+        return formSteps;
+    }
+
+    private static String describeCost(FormResult result, CostMetric metric) {
+        if (result.limitError != null) {
+            return result.form + ": skipped (" + result.limitError.getMessage() + ")";
         }
-        all.removeAll(minterms);
-        return all;
+        if (result.cover == null) {
+            return result.form + ": abandoned (already costlier than the other form)";
+        }
+        return result.form + ": cost " + metric.cost(result.cover) + " -> " + result.expression;
     }
 
-    private List<Minterm> initializeMinterms() {
-        List<Minterm> mintermObjs = new ArrayList<>();
-        for (int m : minterms) {
+    // Lists small term sets in full and summarizes large ones, without boxing every term
+    private static String describeTerms(BitSet terms) {
+        StringBuilder sb = new StringBuilder("[");
+        int listed = 0;
+        for (int m = terms.nextSetBit(0); m >= 0 && listed < MAX_LISTED_TERMS; m = terms.nextSetBit(m + 1)) {
+            if (listed++ > 0) sb.append(", ");
+            sb.append(m);
+        }
+        int total = terms.cardinality();
+        if (total > listed) {
+            sb.append(", ... (").append(total).append(" terms)");
+        }
+        return sb.append("]").toString();
+    }
+
+    private List<Minterm> initializeMinterms(BitSet terms) {
+        List<Minterm> mintermObjs = new ArrayList<>(terms.cardinality());
+        for (int m = terms.nextSetBit(0); m >= 0; m = terms.nextSetBit(m + 1)) {
+            checkInterrupted();
             mintermObjs.add(new Minterm(m, variables.size()));
         }
         return mintermObjs;
@@ -80,15 +225,17 @@ public class QMCore {
         for (Map.Entry<Integer, List<Minterm>> entry : groups.entrySet()) {
             sb.append("Group ").append(entry.getKey()).append(":\n");
             for (Minterm m : entry.getValue()) {
+                checkInterrupted();
                 sb.append("  ").append(m).append("\n");
             }
         }
         return sb.toString();
     }
 
-    private List<Implicant> findPrimeImplicants(List<Minterm> minterms) {
+    private List<Implicant> findPrimeImplicants(List<Minterm> minterms, CostBound bound) {
         Map<Integer, List<Implicant>> groups = new TreeMap<>();
         for (Minterm m : minterms) {
+            checkInterrupted();
             Implicant imp = new Implicant(m);
             groups.computeIfAbsent(imp.countOnes(), k -> new ArrayList<>()).add(imp);
         }
@@ -103,15 +250,18 @@ public class QMCore {
 
         do {
             changed = false;
-            List<Implicant> nextImplicants = new ArrayList<>();
+            // Each combined implicant is reachable from several pairs; keep one copy of each
+            Set<Implicant> nextImplicants = new LinkedHashSet<>();
             Set<Implicant> marked = new HashSet<>();
 
             List<List<Implicant>> groupList = new ArrayList<>(groups.values());
             for (int i = 0; i < groupList.size() - 1; i++) {
+                checkInterrupted();
                 List<Implicant> currentGroup = groupList.get(i);
                 List<Implicant> nextGroup = groupList.get(i + 1);
 
                 for (Implicant imp1 : currentGroup) {
+                    checkInterrupted();
                     for (Implicant imp2 : nextGroup) {
                         if (imp1.canCombine(imp2)) {
                             Implicant combined = new Implicant(imp1, imp2);
@@ -125,12 +275,17 @@ public class QMCore {
             }
 
             for (Implicant imp : currentImplicants) {
+                checkInterrupted();
                 if (!marked.contains(imp) && !primeImplicants.contains(imp)) {
                     primeImplicants.add(imp);
                 }
             }
 
-            currentImplicants = nextImplicants;
+            checkImplicantLimit(nextImplicants.size() + primeImplicants.size(), "implicants");
+            currentImplicants = new ArrayList<>(nextImplicants);
+            if (bound != null && bound.isSet() && bound.isExceededBy(provenEssentials(primeImplicants, currentImplicants))) {
+                return null;
+            }
             groups.clear();
             for (Implicant imp : currentImplicants) {
                 groups.computeIfAbsent(imp.countOnes(), k -> new ArrayList<>()).add(imp);
@@ -142,6 +297,50 @@ public class QMCore {
         return primeImplicants;
     }
 
+    private void checkImplicantLimit(int count, String what) {
+        if (count > implicantLimit) {
+            throw new ImplicantLimitException(String.format(
+                    "Too many %s to minimize: %d (limit %d)", what, count, implicantLimit));
+        }
+    }
+
+    // A minterm that no pending implicant covers can only be covered by prime implicants already
+    // found; if exactly one covers it, that one is essential and belongs to every cover we build
+    private static List<Implicant> provenEssentials(List<Implicant> primes, List<Implicant> pending) {
+        BitSet open = new BitSet();
+        for (Implicant imp : pending) {
+            for (int m : imp.getMinterms()) open.set(m);
+        }
+
+        BitSet seen = new BitSet();
+        BitSet shared = new BitSet();
+        for (Implicant pi : primes) {
+            for (int m : pi.getMinterms()) {
+                if (open.get(m)) continue;
+                if (seen.get(m)) shared.set(m);
+                seen.set(m);
+            }
+        }
+
+        List<Implicant> essentials = new ArrayList<>();
+        for (Implicant pi : primes) {
+            for (int m : pi.getMinterms()) {
+                if (!open.get(m) && !shared.get(m)) {
+                    essentials.add(pi);
+                    break;
+                }
+            }
+        }
+        return essentials;
+    }
+
+    static void checkInterrupted() {
+        // Lets callers running this on a pool (e.g. QMServer) abandon work past its deadline
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Minimization interrupted");
+        }
+    }
+
     private String getMinimizedExpression(List<Implicant> implicants) {
         if (implicants.isEmpty()) {
             return "1"; // For POS, empty product means function is always true
@@ -154,4 +353,83 @@ public class QMCore {
 
         return String.join("·", clauses); // AND of ORs
     }
+
+    private String getMinimizedSOPExpression(List<Implicant> implicants) {
+        if (implicants.isEmpty()) {
+            return "0"; // For SOP, empty sum means function is always false
+        }
+
+        List<String> products = new ArrayList<>();
+        for (Implicant imp : implicants) {
+            products.add(imp.toSOPExpression(variables));
+        }
+
+        return String.join(" + ", products); // OR of ANDs
+    }
+
+    public enum Form {
+        SOP,
+        POS
+    }
+
+    // Cost of the best form finished so far in a cheapest-mode race
+    private static final class CostBound {
+        private final CostMetric metric;
+        private final AtomicLong best = new AtomicLong(Long.MAX_VALUE);
+
+        CostBound(CostMetric metric) {
+            this.metric = metric;
+        }
+
+        boolean isSet() {
+            return best.get() != Long.MAX_VALUE;
+        }
+
+        boolean isExceededBy(List<Implicant> implicants) {
+            return metric.cost(implicants) > best.get();
+        }
+
+        FormResult publish(FormResult result) {
+            if (result.cover != null) {
+                best.accumulateAndGet(metric.cost(result.cover), Math::min);
+            }
+            return result;
+        }
+    }
+
+    private static final class FormResult {
+        private final Form form;
+        private final BitSet coverTerms;
+        private final List<Implicant> primeImplicants;
+        private final PrimeImplicantTable table;
+        private final List<Implicant> cover;
+        private final String expression;
+        private ImplicantLimitException limitError;
+
+        FormResult(Form form, BitSet coverTerms, List<Implicant> primeImplicants, PrimeImplicantTable table,
+                   List<Implicant> cover, String expression) {
+            this.form = form;
+            this.coverTerms = coverTerms;
+            this.primeImplicants = primeImplicants;
+            this.table = table;
+            this.cover = cover;
+            this.expression = expression;
+        }
+
+        static FormResult abandoned(Form form) {
+            return new FormResult(form, null, null, null, null, null);
+        }
+
+        static FormResult overLimit(Form form, ImplicantLimitException error) {
+            FormResult result = abandoned(form);
+            result.limitError = error;
+            return result;
+        }
+    }
+
+    private static final class ImplicantLimitException extends IllegalArgumentException {
+        ImplicantLimitException(String message) {
+            super(message);
+        }
+    }
 }
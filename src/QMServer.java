@@ -0,0 +1,378 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class QMServer {
+    public static final int DEFAULT_PORT = 8130;
+
+    private static final int SMALL_REQUEST_VARS = 6;
+    private static final int MAX_VARIABLES = 16;
+    private static final int MAX_IMPLICANTS = 8192; // Per form; keeps one request from exhausting the shared heap
+    private static final int MAX_BATCH_SIZE = 32;
+    private static final long BATCH_LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long DEFAULT_DEADLINE_MS = 5_000;
+    private static final long MAX_DEADLINE_MS = 60_000;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final HttpServer httpServer;
+    private final ExecutorService connectionExecutor;
+    private final ThreadPoolExecutor workerPool;
+    private final BlockingQueue<Job> smallJobs;
+    private final Thread batcher;
+    private final Metrics metrics = new Metrics();
+    private volatile boolean running;
+
+    public QMServer(int port) throws IOException {
+        this(port, Runtime.getRuntime().availableProcessors());
+    }
+
+    public QMServer(int port, int workerThreads) throws IOException {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker thread count must be positive");
+        }
+
+        // Loopback only: the server is meant to be shared by local tools, not exposed
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.connectionExecutor = newConnectionExecutor();
+        this.workerPool = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerThreads * 16), daemonThreads("qm-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.smallJobs = new ArrayBlockingQueue<>(MAX_BATCH_SIZE * 16);
+        this.batcher = new Thread(this::runBatcher, "qm-batcher");
+        this.batcher.setDaemon(true);
+
+        httpServer.setExecutor(connectionExecutor);
+        httpServer.createContext("/minimize", this::handleMinimize);
+        httpServer.createContext("/metrics", this::handleMetrics);
+    }
+
+    public void start() {
+        running = true;
+        batcher.start();
+        httpServer.start();
+    }
+
+    public void stop() {
+        if (!running) return;
+        running = false;
+        httpServer.stop(0);
+        batcher.interrupt();
+        workerPool.shutdownNow();
+        connectionExecutor.shutdownNow();
+    }
+
+    public InetSocketAddress getAddress() {
+        return httpServer.getAddress();
+    }
+
+    private void handleMinimize(HttpExchange exchange) throws IOException {
+        long startNanos = System.nanoTime();
+        metrics.requests.incrementAndGet();
+
+        Map<String, String> params;
+        Job job;
+        try {
+            params = readParams(exchange);
+            BitSet terms = QMVisualizer.parseMinterms(params.getOrDefault("terms", ""));
+            List<Character> variables = QMVisualizer.parseVariables(
+                    QMVisualizer.cleanInput(params.getOrDefault("variables", "")).toUpperCase());
+            if (variables.size() > MAX_VARIABLES) {
+                throw new IllegalArgumentException(String.format(
+                        "At most %d variables are supported (got %d)", MAX_VARIABLES, variables.size()));
+            }
+            QMVisualizer.validateVariableCount(terms, variables);
+            job = new Job(terms, variables, parseMode(params, variables.size() <= SMALL_REQUEST_VARS),
+                    startNanos + TimeUnit.MILLISECONDS.toNanos(parseDeadline(params)));
+        } catch (IllegalArgumentException e) {
+            metrics.badRequests.incrementAndGet();
+            respond(exchange, 400, e.getMessage());
+            return;
+        }
+
+        if (!enqueue(job)) {
+            metrics.rejected.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, "Server busy");
+            return;
+        }
+
+        int status;
+        String body;
+        try {
+            body = job.result.get(job.deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            status = 200;
+            metrics.recordLatency(System.nanoTime() - startNanos);
+        } catch (TimeoutException e) {
+            job.cancel();
+            metrics.timedOut.incrementAndGet();
+            status = 504;
+            body = "Deadline exceeded";
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RejectedExecutionException) {
+                metrics.rejected.incrementAndGet();
+                status = 503;
+                body = "Server busy";
+            } else if (cause instanceof TimeoutException) {
+                metrics.timedOut.incrementAndGet();
+                status = 504;
+                body = "Deadline exceeded";
+            } else {
+                metrics.failed.incrementAndGet();
+                status = cause instanceof IllegalArgumentException ? 400 : 500;
+                body = String.valueOf(cause.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+            metrics.failed.incrementAndGet();
+            status = 503;
+            body = "Server shutting down";
+        }
+        respond(exchange, status, body);
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        String body = metrics.render(workerPool.getQueue().size(), workerPool.getActiveCount(), smallJobs.size());
+        respond(exchange, 200, body);
+    }
+
+    private boolean enqueue(Job job) {
+        if (job.variables.size() <= SMALL_REQUEST_VARS) {
+            return smallJobs.offer(job);
+        }
+        try {
+            job.task = workerPool.submit(job::run);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // Coalesces small requests so a single worker task runs many of them back to back
+    private void runBatcher() {
+        while (running) {
+            List<Job> batch = new ArrayList<>(MAX_BATCH_SIZE);
+            try {
+                Job first = smallJobs.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                long lingerEnd = System.nanoTime() + BATCH_LINGER_NANOS;
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    long remaining = lingerEnd - System.nanoTime();
+                    Job next = remaining > 0 ? smallJobs.poll(remaining, TimeUnit.NANOSECONDS) : smallJobs.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(Job::cancel);
+                return;
+            }
+            dispatchBatch(batch);
+        }
+    }
+
+    private void dispatchBatch(List<Job> batch) {
+        try {
+            workerPool.execute(() -> batch.forEach(Job::run));
+            metrics.batches.incrementAndGet();
+            metrics.batchedJobs.addAndGet(batch.size());
+        } catch (RejectedExecutionException e) {
+            for (Job job : batch) {
+                job.result.completeExceptionally(new RejectedExecutionException("Server busy"));
+            }
+        }
+    }
+
+    private Function<QMCore, String> parseMode(Map<String, String> params, boolean batched) {
+        String form = params.getOrDefault("form", "pos").trim().toLowerCase(Locale.ROOT);
+        switch (form) {
+            case "pos":
+                return qm -> qm.minimize(QMCore.Form.POS);
+            case "sop":
+                return qm -> qm.minimize(QMCore.Form.SOP);
+            case "cheapest":
+                CostMetric metric = CostMetric.parse(params.getOrDefault("metric", "literals"));
+                // Batched requests are small enough to run both forms on their own worker
+                Executor sopExecutor = batched ? Runnable::run : this::executeOnIdleWorker;
+                return qm -> qm.minimizeCheapest(metric, sopExecutor);
+            default:
+                throw new IllegalArgumentException("Unknown form: " + form);
+        }
+    }
+
+    // Hands the SOP side of cheapest mode to a worker only when one is idle. Otherwise it rejects
+    // the task and the caller runs SOP itself, so these tasks never take a queue slot that
+    // backpressure counts on.
+    private void executeOnIdleWorker(Runnable task) {
+        if (workerPool.getActiveCount() >= workerPool.getMaximumPoolSize() || !workerPool.getQueue().isEmpty()) {
+            throw new RejectedExecutionException("No idle worker");
+        }
+        workerPool.execute(task);
+    }
+
+    private static long parseDeadline(Map<String, String> params) {
+        String value = params.get("deadline");
+        if (value == null || value.isEmpty()) {
+            return DEFAULT_DEADLINE_MS;
+        }
+        try {
+            long deadline = Long.parseLong(value.trim());
+            if (deadline <= 0) throw new IllegalArgumentException("Deadline must be positive");
+            return Math.min(deadline, MAX_DEADLINE_MS);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid deadline: " + value);
+        }
+    }
+
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+
+        if ("POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+                if (body.length > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body too large");
+                }
+                parseForm(new String(body, StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) return;
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            String key = URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key.trim(), value);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = (body + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static ExecutorService newConnectionExecutor() {
+        // One virtual thread per connection when the runtime has them (Java 21+)
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(daemonThreads("qm-conn"));
+        }
+    }
+
+    static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Job {
+        private final BitSet terms;
+        private final List<Character> variables;
+        private final Function<QMCore, String> mode;
+        private final long deadlineNanos;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private volatile Future<?> task;
+
+        Job(BitSet terms, List<Character> variables, Function<QMCore, String> mode, long deadlineNanos) {
+            this.terms = terms;
+            this.variables = variables;
+            this.mode = mode;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        void run() {
+            if (result.isDone()) return;
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                result.completeExceptionally(new TimeoutException("Deadline exceeded before start"));
+                return;
+            }
+            try {
+                QMCore qm = new QMCore(terms, variables);
+                qm.setRecordSteps(false);
+                qm.setImplicantLimit(MAX_IMPLICANTS);
+                result.complete(mode.apply(qm));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        void cancel() {
+            result.cancel(false);
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+    }
+
+    private static final class Metrics {
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong badRequests = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong batchedJobs = new AtomicLong();
+        private final AtomicLong latencyTotalNanos = new AtomicLong();
+        private final AtomicLong latencyMaxNanos = new AtomicLong();
+
+        void recordLatency(long nanos) {
+            completed.incrementAndGet();
+            latencyTotalNanos.addAndGet(nanos);
+            latencyMaxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        String render(int workerQueueDepth, int activeWorkers, int batchQueueDepth) {
+            double uptimeSeconds = (System.nanoTime() - startNanos) / 1e9;
+            long done = completed.get();
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("uptime_seconds %.3f%n", uptimeSeconds));
+            sb.append("requests_total ").append(requests.get()).append("\n");
+            sb.append("completed_total ").append(done).append("\n");
+            sb.append("bad_requests_total ").append(badRequests.get()).append("\n");
+            sb.append("rejected_total ").append(rejected.get()).append("\n");
+            sb.append("timed_out_total ").append(timedOut.get()).append("\n");
+            sb.append("failed_total ").append(failed.get()).append("\n");
+            sb.append("batches_total ").append(batches.get()).append("\n");
+            sb.append("batched_requests_total ").append(batchedJobs.get()).append("\n");
+            sb.append(String.format("throughput_per_second %.3f%n", uptimeSeconds > 0 ? done / uptimeSeconds : 0.0));
+            sb.append(String.format("latency_avg_ms %.3f%n", done > 0 ? latencyTotalNanos.get() / 1e6 / done : 0.0));
+            sb.append(String.format("latency_max_ms %.3f%n", latencyMaxNanos.get() / 1e6));
+            sb.append("active_workers ").append(activeWorkers).append("\n");
+            sb.append("worker_queue_depth ").append(workerQueueDepth).append("\n");
+            sb.append("batch_queue_depth ").append(batchQueueDepth);
+            return sb.toString();
+        }
+    }
+}
@@ -3,16 +3,28 @@ import javax.swing.text.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 public class QMVisualizer extends JFrame {
+    // The GUI runs one minimization at a time, so one helper thread covers the SOP side of a race
+    private static final ExecutorService FORM_EXECUTOR =
+            Executors.newSingleThreadExecutor(QMServer.daemonThreads("qm-form"));
+
     private JTextField mintermsField;
+    private JLabel importLabel;
+    private BitSet importedMinterms;
     private JTextField variablesField;
+    private JComboBox<OutputMode> formBox;
     private JTextArea outputArea;
     private JButton minimizeButton;
     private JButton clearButton;
+    private JButton importButton;
     private JPanel stepsPanel;
     private JTabbedPane tabbedPane;
 
@@ -27,10 +39,10 @@ public class QMVisualizer extends JFrame {
         setLayout(new BorderLayout());
 
         // Input panel
-        JPanel inputPanel = new JPanel(new GridLayout(3, 2, 5, 5));
+        JPanel inputPanel = new JPanel(new GridLayout(4, 2, 5, 5));
         inputPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        inputPanel.add(new JLabel("Minterms (comma separated):"));
+        inputPanel.add(new JLabel("Minterms (e.g., 1,3,8-15 or 0xF0F0):"));
         mintermsField = new JTextField();
         ((AbstractDocument)mintermsField.getDocument()).setDocumentFilter(new NumericDocumentFilter());
         inputPanel.add(mintermsField);
@@ -40,14 +52,23 @@ public class QMVisualizer extends JFrame {
         ((AbstractDocument)variablesField.getDocument()).setDocumentFilter(new AlphaDocumentFilter());
         inputPanel.add(variablesField);
 
+        inputPanel.add(new JLabel("Output form:"));
+        formBox = new JComboBox<>(OutputMode.values());
+        inputPanel.add(formBox);
+
         minimizeButton = new JButton("Minimize");
         clearButton = new JButton("Clear");
+        importButton = new JButton("Import...");
 
         JPanel buttonPanel = new JPanel(new FlowLayout());
         buttonPanel.add(minimizeButton);
         buttonPanel.add(clearButton);
+        buttonPanel.add(importButton);
         inputPanel.add(buttonPanel);
 
+        importLabel = new JLabel();
+        inputPanel.add(importLabel);
+
         add(inputPanel, BorderLayout.NORTH);
 
         // Output area
@@ -67,10 +88,13 @@ public class QMVisualizer extends JFrame {
         // Event handlers
         minimizeButton.addActionListener(e -> minimizeBooleanFunction());
         clearButton.addActionListener(e -> clearFields());
+        importButton.addActionListener(e -> importMinterms());
     }
 
     private void clearFields() {
         mintermsField.setText("");
+        importedMinterms = null;
+        importLabel.setText("");
         variablesField.setText("");
         outputArea.setText("");
         stepsPanel.removeAll();
@@ -85,55 +109,21 @@ public class QMVisualizer extends JFrame {
         stepsPanel.repaint();
 
         try {
-            String mintermsText = cleanInput(mintermsField.getText());
+            String mintermsText = mintermsField.getText().trim();
             String variablesText = cleanInput(variablesField.getText()).toUpperCase();
 
-            if (mintermsText.isEmpty() || variablesText.isEmpty()) {
+            if ((mintermsText.isEmpty() && importedMinterms == null) || variablesText.isEmpty()) {
                 throw new IllegalArgumentException("Both fields must be filled");
             }
 
-            // Parse minterms with strict validation
-            List<Integer> minterms = Arrays.stream(mintermsText.split(","))
-                    .map(String::trim)
-                    .filter(s -> !s.isEmpty())
-                    .map(s -> {
-                        try {
-                            int num = Integer.parseInt(s);
-                            if (num < 0) throw new IllegalArgumentException("Negative minterms not allowed");
-                            return num;
-                        } catch (NumberFormatException e) {
-                            throw new IllegalArgumentException("Invalid number: " + s);
-                        }
-                    })
-                    .distinct()
-                    .sorted()
-                    .collect(Collectors.toList());
-
-            if (minterms.isEmpty()) {
-                throw new IllegalArgumentException("No valid minterms provided");
-            }
-
-            // Parse variables with strict validation
-            if (!variablesText.matches("[A-Z]+")) {
-                throw new IllegalArgumentException("Variables must be uppercase letters (A-Z)");
-            }
-
-            List<Character> variables = variablesText.chars()
-                    .mapToObj(c -> (char) c)
-                    .collect(Collectors.toList());
-
-            // Validate variable count
-            int maxMinterm = Collections.max(minterms);
-            int requiredVars = (int) Math.ceil(Math.log(maxMinterm + 1) / Math.log(2));
-            if (variables.size() < requiredVars) {
-                throw new IllegalArgumentException(String.format(
-                        "Need at least %d variables for minterm %d (got %d)",
-                        requiredVars, maxMinterm, variables.size()));
-            }
+            // Typed minterms take precedence over an imported file
+            BitSet minterms = mintermsText.isEmpty() ? importedMinterms : parseMinterms(mintermsText);
+            List<Character> variables = parseVariables(variablesText);
+            validateVariableCount(minterms, variables);
 
             // Run algorithm
             QMCore qm = new QMCore(minterms, variables);
-            String result = qm.minimize();
+            String result = ((OutputMode) formBox.getSelectedItem()).run(qm);
             outputArea.setText(result);
             displaySteps(qm.getSteps());
 
@@ -145,10 +135,63 @@ public class QMVisualizer extends JFrame {
         }
     }
 
-    private String cleanInput(String input) {
+    static BitSet parseMinterms(String mintermsText) {
+        BitSet minterms = TermParser.parse(mintermsText);
+        return requireMinterms(minterms);
+    }
+
+    private static BitSet requireMinterms(BitSet minterms) {
+        if (minterms.isEmpty()) {
+            throw new IllegalArgumentException("No valid minterms provided");
+        }
+        return minterms;
+    }
+
+    static List<Character> parseVariables(String variablesText) {
+        // Parse variables with strict validation
+        if (!variablesText.matches("[A-Z]+")) {
+            throw new IllegalArgumentException("Variables must be uppercase letters (A-Z)");
+        }
+        if (variablesText.chars().distinct().count() != variablesText.length()) {
+            throw new IllegalArgumentException("Variables must not repeat");
+        }
+
+        return variablesText.chars()
+                .mapToObj(c -> (char) c)
+                .collect(Collectors.toList());
+    }
+
+    static void validateVariableCount(BitSet minterms, List<Character> variables) {
+        int maxMinterm = minterms.length() - 1;
+        int requiredVars = 32 - Integer.numberOfLeadingZeros(maxMinterm);
+        if (variables.size() < requiredVars) {
+            throw new IllegalArgumentException(String.format(
+                    "Need at least %d variables for minterm %d (got %d)",
+                    requiredVars, maxMinterm, variables.size()));
+        }
+    }
+
+    static String cleanInput(String input) {
         return input == null ? "" : input.replaceAll("[^\\dA-Za-z,]", "");
     }
 
+    private void importMinterms() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File file = chooser.getSelectedFile();
+        try {
+            importedMinterms = requireMinterms(TermParser.parse(file.toPath()));
+            mintermsField.setText("");
+            importLabel.setText(String.format("Imported %s (%d minterms)",
+                    file.getName(), importedMinterms.cardinality()));
+        } catch (IOException e) {
+            showError("Could not read " + file.getName() + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            showError(file.getName() + ": " + e.getMessage());
+        }
+    }
+
     private void showError(String message) {
         SwingUtilities.invokeLater(() ->
                 JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE));
@@ -170,19 +213,46 @@ public class QMVisualizer extends JFrame {
         tabbedPane.setSelectedIndex(1);
     }
 
+    private enum OutputMode {
+        POS("POS", QMCore.Form.POS, null),
+        SOP("SOP", QMCore.Form.SOP, null),
+        CHEAPEST_LITERALS("Cheapest (literals)", null, CostMetric.LITERALS),
+        CHEAPEST_GATES("Cheapest (gates)", null, CostMetric.GATES),
+        CHEAPEST_GATE_INPUTS("Cheapest (gate inputs)", null, CostMetric.GATE_INPUTS);
+
+        private final String label;
+        private final QMCore.Form form;
+        private final CostMetric metric;
+
+        OutputMode(String label, QMCore.Form form, CostMetric metric) {
+            this.label = label;
+            this.form = form;
+            this.metric = metric;
+        }
+
+        String run(QMCore qm) {
+            return metric != null ? qm.minimizeCheapest(metric, FORM_EXECUTOR) : qm.minimize(form);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
     private static class NumericDocumentFilter extends DocumentFilter {
         @Override
         public void insertString(FilterBypass fb, int offset, String string, AttributeSet attr)
                 throws BadLocationException {
             if (string == null) return;
-            super.insertString(fb, offset, string.replaceAll("[^\\d,]", ""), attr);
+            super.insertString(fb, offset, string.replaceAll("[^\\dA-Fa-fXx,\\-\\s]", ""), attr);
         }
 
         @Override
         public void replace(FilterBypass fb, int offset, int length, String text, AttributeSet attrs)
                 throws BadLocationException {
             if (text == null) return;
-            super.replace(fb, offset, length, text.replaceAll("[^\\d,]", ""), attrs);
+            super.replace(fb, offset, length, text.replaceAll("[^\\dA-Fa-fXx,\\-\\s]", ""), attrs);
         }
     }
 
@@ -203,6 +273,27 @@ public class QMVisualizer extends JFrame {
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port;
+            try {
+                port = args.length > 1 ? Integer.parseInt(args[1]) : QMServer.DEFAULT_PORT;
+            } catch (NumberFormatException e) {
+                System.err.println("Usage: QMVisualizer --server [port]");
+                System.exit(1);
+                return;
+            }
+            try {
+                QMServer server = new QMServer(port);
+                Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+                server.start();
+                System.out.println("QM server listening on " + server.getAddress());
+            } catch (IOException e) {
+                System.err.println("Failed to start server: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
             QMVisualizer gui = new QMVisualizer();
             gui.setVisible(true);
@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+// Streams term specifications straight into a BitSet. Accepted tokens, separated by commas or
+// whitespace: single terms (5), inclusive ranges (100-4095) and hex truth tables (0xF0F0, where
+// bit i of the value sets term i). In files, '#' starts a comment that runs to the end of the line.
+public final class TermParser {
+    public static final int MAX_TERMS = 1 << 26; // One term per row of a 26-variable (A-Z) truth table
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int length;
+    private int index;
+    private long position;
+    private final BitSet terms = new BitSet();
+
+    private TermParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    public static BitSet parse(String text) {
+        try {
+            return parse(new StringReader(text == null ? "" : text));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Rejects negative terms and terms at or above MAX_TERMS, with the same messages as parse
+    public static BitSet toBitSet(Collection<Integer> terms) {
+        BitSet bits = new BitSet();
+        for (int term : terms) {
+            if (term < 0) {
+                throw new IllegalArgumentException("Negative minterms not allowed");
+            }
+            if (term >= MAX_TERMS) {
+                throw new IllegalArgumentException("Minterms must be below " + MAX_TERMS);
+            }
+            bits.set(term);
+        }
+        return bits;
+    }
+
+    public static BitSet parse(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    public static BitSet parse(Reader reader) throws IOException {
+        TermParser parser = new TermParser(reader);
+        parser.parseAll();
+        return parser.terms;
+    }
+
+    private void parseAll() throws IOException {
+        int c;
+        while ((c = peek()) != -1) {
+            if (isSeparator(c)) {
+                next();
+            } else if (c == '#') {
+                skipComment();
+            } else if (c == '-') {
+                throw new IllegalArgumentException("Negative minterms not allowed");
+            } else if (isDigit(c)) {
+                parseTerm();
+            } else {
+                throw unexpected(c);
+            }
+        }
+    }
+
+    private void parseTerm() throws IOException {
+        if (peek() == '0') {
+            next();
+            int c = peek();
+            if (c == 'x' || c == 'X') {
+                next();
+                parseHex();
+                return;
+            }
+            if (!isDigit(c)) {
+                parseRangeEnd(0);
+                return;
+            }
+        }
+        parseRangeEnd(readNumber());
+    }
+
+    private void parseRangeEnd(int start) throws IOException {
+        if (peek() != '-') {
+            terms.set(start);
+            endOfToken();
+            return;
+        }
+        next();
+        if (!isDigit(peek())) {
+            throw new IllegalArgumentException("Range starting at " + start + " has no end");
+        }
+        int end = readNumber();
+        if (end < start) {
+            throw new IllegalArgumentException(String.format("Invalid range %d-%d", start, end));
+        }
+        terms.set(start, end + 1);
+        endOfToken();
+    }
+
+    private int readNumber() throws IOException {
+        long value = 0;
+        while (isDigit(peek())) {
+            value = value * 10 + (next() - '0');
+            if (value >= MAX_TERMS) {
+                throw new IllegalArgumentException("Minterms must be below " + MAX_TERMS);
+            }
+        }
+        return (int) value;
+    }
+
+    // Nibbles arrive most significant first, so they are buffered and placed once the length is known
+    private void parseHex() throws IOException {
+        byte[] nibbles = new byte[64];
+        int count = 0;
+        int c;
+        while ((c = hexValue(peek())) != -1) {
+            next();
+            if (count == nibbles.length) {
+                if ((long) count * 4 >= MAX_TERMS) {
+                    throw new IllegalArgumentException("Hex truth table exceeds " + MAX_TERMS + " terms");
+                }
+                nibbles = Arrays.copyOf(nibbles, count * 2);
+            }
+            nibbles[count++] = (byte) c;
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("Hex truth table has no digits");
+        }
+        endOfToken();
+
+        long[] words = new long[(count + 15) / 16];
+        for (int i = 0; i < count; i++) {
+            int k = count - 1 - i;
+            words[k >> 4] |= (long) nibbles[i] << ((k & 15) * 4);
+        }
+        terms.or(BitSet.valueOf(words));
+    }
+
+    private void skipComment() throws IOException {
+        int c;
+        while ((c = next()) != -1 && c != '\n') {
+            // Discard the rest of the line
+        }
+    }
+
+    private void endOfToken() throws IOException {
+        int c = peek();
+        if (c != -1 && !isSeparator(c) && c != '#') {
+            throw unexpected(c);
+        }
+    }
+
+    private IllegalArgumentException unexpected(int c) {
+        return new IllegalArgumentException(
+                String.format("Unexpected character '%c' at position %d", (char) c, position));
+    }
+
+    private int peek() throws IOException {
+        if (index == length) {
+            length = reader.read(buffer, 0, BUFFER_SIZE);
+            index = 0;
+            if (length <= 0) {
+                length = 0;
+                return -1;
+            }
+        }
+        return buffer[index];
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            index++;
+            position++;
+        }
+        return c;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // ASCII only, matching isDigit; Character.digit would also accept other scripts' digits
+    private static int hexValue(int c) {
+        if (isDigit(c)) return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private static boolean isSeparator(int c) {
+        return c == ',' || c == ';' || Character.isWhitespace(c);
+    }
+}